@@ -16,15 +16,23 @@ import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.BuildStepMonitor;
 import hudson.tasks.Notifier;
 import hudson.tasks.Publisher;
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.test.AbstractTestResultAction;
+import hudson.tasks.test.AggregatedTestResultAction;
+import hudson.tasks.test.AggregatedTestResultAction.ChildReport;
 import hudson.util.FormValidation;
 
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
 
 import net.sf.json.JSONObject;
 import net.sf.json.JSONSerializer;
@@ -50,6 +58,31 @@ import org.kohsuke.stapler.StaplerRequest;
  */
 public class MysmsNotifier extends Notifier {
 
+    /**
+     * The maximum number of failed tests listed by %FAILED_TESTS%.
+     */
+    protected static final int MAX_FAILED_TESTS = 5;
+
+    /**
+     * The default maximum number of change set entries listed by %CHANGES%.
+     */
+    protected static final int DEFAULT_MAX_CHANGES = 5;
+
+    /**
+     * The default maximum number of characters per %CHANGES% entry.
+     */
+    protected static final int DEFAULT_MAX_CHANGE_LENGTH = 80;
+
+    /**
+     * Orders failed tests by age, so that tests which just started failing
+     * come first.
+     */
+    private static final Comparator<CaseResult> FAILED_TEST_AGE = new Comparator<CaseResult>() {
+        public int compare(final CaseResult o1, final CaseResult o2) {
+            return o1.getAge() - o2.getAge();
+        }
+    };
+
     /**
      * The message to send/read to the recipient.
      */
@@ -75,6 +108,17 @@ public class MysmsNotifier extends Notifier {
     private final String userList;
 
     private final String culpritMessage;
+
+    /**
+     * The maximum number of change set entries listed by %CHANGES%.
+     */
+    private final Integer maxChanges;
+
+    /**
+     * The maximum number of characters per %CHANGES% entry.
+     */
+    private final Integer maxChangeLength;
+
     private final Map<String, NameValuePair> userToPhoneMap;
     private final Map<String, String> substitutionAttributes;
 
@@ -90,11 +134,15 @@ public class MysmsNotifier extends Notifier {
      *            whether to send notification only on failure or recovery
      * @param includeUrl
      *            whether to include a url to the build statu
+     * @param maxChanges
+     *            the maximum number of change set entries listed by %CHANGES%
+     * @param maxChangeLength
+     *            the maximum number of characters per %CHANGES% entry
      */
     @DataBoundConstructor
     public MysmsNotifier(final String message, final String toList, final String onlyOnFailureOrRecovery,
             final String includeUrl, final String userList, final String sendToCulprits,
-            final String culpritMessage) {
+            final String culpritMessage, final String maxChanges, final String maxChangeLength) {
     	
     	 Logger.getLogger(MysmsNotifier.class).info("MysmsNotifier initialize");
     	
@@ -105,6 +153,8 @@ public class MysmsNotifier extends Notifier {
         this.userList = userList;
         this.sendToCulprits = convertToBoolean(sendToCulprits);
         this.culpritMessage = culpritMessage;
+        this.maxChanges = convertToInteger(maxChanges);
+        this.maxChangeLength = convertToInteger(maxChangeLength);
 
         userToPhoneMap = parseUserList(userList);
         substitutionAttributes = new HashMap<String, String>();
@@ -143,11 +193,113 @@ public class MysmsNotifier extends Notifier {
         String result = inputString;
         for (String key : substitutionMap.keySet()) {
             String replaceValue = substitutionMap.get(key);
-            result = result.replaceAll(key, replaceValue);
+            result = result.replaceAll(key, Matcher.quoteReplacement(replaceValue));
         }
         return result;
     }
 
+    /**
+     * Merges the first <code>max</code> elements in the given order into an
+     * already selected, ordered list of at most <code>max</code> elements,
+     * without copying or sorting all of them. Equal elements keep their
+     * iteration order.
+     * 
+     * @param iterator
+     *            the elements to select from
+     * @param max
+     *            the maximum number of elements to select
+     * @param comparator
+     *            the order of the elements
+     * @param result
+     *            the already selected elements, receives the selection
+     */
+    protected static <T> void selectTop(final Iterator<? extends T> iterator, final int max,
+            final Comparator<? super T> comparator, final List<T> result) {
+        if (max <= 0) {
+            return;
+        }
+        while (iterator.hasNext()) {
+            final T element = iterator.next();
+            if (result.size() == max && comparator.compare(element, result.get(max - 1)) >= 0) {
+                continue;
+            }
+            int index = result.size();
+            while (index > 0 && comparator.compare(element, result.get(index - 1)) < 0) {
+                index--;
+            }
+            result.add(index, element);
+            if (result.size() > max) {
+                result.remove(max);
+            }
+        }
+    }
+
+    /**
+     * Builds the %FAILED_TESTS% value out of the failed tests of a build.
+     * 
+     * @param testResult
+     *            the test result action of the build
+     * @return the names of the newest failing tests
+     */
+    protected String failedTestsString(final AbstractTestResultAction<?> testResult) {
+        final List<CaseResult> failedTests = new ArrayList<CaseResult>(MAX_FAILED_TESTS + 1);
+        selectFailedTests(testResult, failedTests);
+        final List<String> failedTestNames = new ArrayList<String>(failedTests.size());
+        for (final CaseResult failedTest : failedTests) {
+            failedTestNames.add(failedTest.getFullName());
+        }
+        return failedTestsString(failedTestNames, testResult.getFailCount());
+    }
+
+    /**
+     * Selects the newest failing tests of a test result. Aggregated results
+     * (matrix and maven module set builds) are walked child by child, as
+     * their failed tests would otherwise be copied into a single list.
+     * 
+     * @param testResult
+     *            the test result action
+     * @param failedTests
+     *            receives the selected failed tests
+     */
+    private static void selectFailedTests(final AbstractTestResultAction<?> testResult,
+            final List<CaseResult> failedTests) {
+        if (testResult instanceof AggregatedTestResultAction) {
+            for (final ChildReport childReport : ((AggregatedTestResultAction) testResult).getChildReports()) {
+                if (childReport.result != null) {
+                    selectFailedTests(childReport.result, failedTests);
+                }
+            }
+        } else {
+            selectTop(testResult.getFailedTests().iterator(), MAX_FAILED_TESTS, FAILED_TEST_AGE, failedTests);
+        }
+    }
+
+    /**
+     * Builds the %FAILED_TESTS% value out of the selected test names.
+     * 
+     * @param failedTestNames
+     *            the names of the selected failed tests
+     * @param failCount
+     *            the total number of failed tests
+     * @return the names of the tests followed by the number of omitted tests
+     */
+    protected static String failedTestsString(final List<String> failedTestNames, final int failCount) {
+        final StringBuilder failedTestsStringBuilder = new StringBuilder();
+        for (final String failedTestName : failedTestNames) {
+            failedTestsStringBuilder
+                .append("\n")
+                .append(failedTestName);
+        }
+        final int more = failCount - failedTestNames.size();
+        if (more > 0) {
+            failedTestsStringBuilder
+                .append("\n... and ")
+                .append(more)
+                .append(" more");
+        }
+        return failedTestsStringBuilder.toString();
+    }
+
     /**
      * Getter for the toList.
      * 
@@ -228,6 +380,47 @@ public class MysmsNotifier extends Notifier {
         return result;
     }
 
+    /**
+     * Converts a string to an Integer.
+     * 
+     * @param string
+     *            the string to convert to Integer
+     * 
+     * @return the Integer or null if the string is not a number
+     */
+    private static Integer convertToInteger(final String string) {
+        Integer result = null;
+        if (string != null) {
+            try {
+                result = Integer.valueOf(string.trim());
+            } catch (final NumberFormatException e) {
+                // keep the default
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Getter for the maximum number of change set entries listed by
+     * %CHANGES%, at least 1.
+     * 
+     * @return the maximum number of changes
+     */
+    public int getMaxChanges() {
+        return this.maxChanges != null ? Math.max(1, this.maxChanges.intValue()) : DEFAULT_MAX_CHANGES;
+    }
+
+    /**
+     * Getter for the maximum number of characters per %CHANGES% entry, at
+     * least 1.
+     * 
+     * @return the maximum length of a change
+     */
+    public int getMaxChangeLength() {
+        return this.maxChangeLength != null ? Math.max(1, this.maxChangeLength.intValue())
+                : DEFAULT_MAX_CHANGE_LENGTH;
+    }
+
     /**
      * Returns the include url flag.
      * 
@@ -258,11 +451,18 @@ public class MysmsNotifier extends Notifier {
     @Override
     public boolean perform(final AbstractBuild<?, ?> build, final Launcher launcher, final BuildListener listener) {
 
+        final NotificationReport.Notification report = getNotificationReport(build).startNotification();
         try {
             listener.getLogger().println("Perform " + build.getDisplayName());
 
-            if (shouldNotify(build)) {
+            long start = System.currentTimeMillis();
+            final boolean notify = shouldNotify(build);
+            report.addStage("shouldNotify", start);
+            report.setNotified(notify);
+
+            if (notify) {
                 
+                start = System.currentTimeMillis();
                 if (build != null) {
                     substitutionAttributes.put("%PROJECT%", build.getProject().getFullDisplayName());
                     substitutionAttributes.put("%BUILD%", build.getDisplayName());
@@ -275,7 +475,7 @@ public class MysmsNotifier extends Notifier {
 	                    	    .append("\n")
 	                    	    .append(artifact.getFileName())
 	                    		.append(":\n")
-	                    		.append(createTinyUrl(getDescriptor().getUrl() + build.getUrl() + "artifact/" + artifact.getHref()))
+	                    		.append(createTinyUrl(report, getDescriptor().getUrl() + build.getUrl() + "artifact/" + artifact.getHref()))
 	                    		.append("\n");
 	                    }
 	                    substitutionAttributes.put("%ARTIFACTS%", artifactsStringBuilder.toString());
@@ -289,16 +489,40 @@ public class MysmsNotifier extends Notifier {
 	                    	    .append("\n")
 	                    	    .append(action.getDisplayName())
 	                    		.append(":\n")
-	                    		.append(createTinyUrl(action.getUrlName()))
+	                    		.append(createTinyUrl(report, action.getUrlName()))
 	                    		.append("\n");
 	                    }
 	                    substitutionAttributes.put("%TESTFLIGHT_INSTALLS%", testflightInstallLinksStringBuilder.toString());
 	                }
+
+                    if (isReferenced("%FAILED_TESTS%") || isReferenced("%FAILED_TESTS_COUNT%")) {
+                        final AbstractTestResultAction<?> testResult = build.getAction(AbstractTestResultAction.class);
+                        if (testResult != null) {
+                            substitutionAttributes.put("%FAILED_TESTS_COUNT%", String.valueOf(testResult.getFailCount()));
+                            if (isReferenced("%FAILED_TESTS%")) {
+                                substitutionAttributes.put("%FAILED_TESTS%", failedTestsString(testResult));
+                            }
+                        } else {
+                            substitutionAttributes.put("%FAILED_TESTS_COUNT%", "0");
+                            substitutionAttributes.put("%FAILED_TESTS%", "");
+                        }
+                    }
                 }
+                report.addStage("render", start);
                
-                List<String> culpritList = getCulpritList(build, listener.getLogger());
-                listener.getLogger().println("Culprits: " + culpritList.size());
-                listener.getLogger().println("Culprits: " + culpritList);
+                start = System.currentTimeMillis();
+                final StringBuilder changes = isReferenced("%CHANGES%") ? new StringBuilder() : null;
+                final boolean collectCulprits = changes == null || Boolean.TRUE.equals(sendToCulprits)
+                        || isReferenced("%CULPRITS%");
+                List<String> culpritList = getCulpritList(build, listener.getLogger(), changes, collectCulprits);
+                report.addStage("getCulpritList", start);
+                if (changes != null) {
+                    substitutionAttributes.put("%CHANGES%", changes.toString());
+                }
+                if (collectCulprits) {
+                    listener.getLogger().println("Culprits: " + culpritList.size());
+                    listener.getLogger().println("Culprits: " + culpritList);
+                }
                 
                 substitutionAttributes.put("%CULPRITS%", culpritStringFromList(culpritList));
 
@@ -307,17 +531,19 @@ public class MysmsNotifier extends Notifier {
                 if (recipientArray != null) {
                     for (final String recipient : recipientArray) {
                         final String absoluteBuildURL = getDescriptor().getUrl() + build.getUrl();
+                        start = System.currentTimeMillis();
                         String message = substituteAttributes(this.message, substitutionAttributes);
+                        report.addStage("render", start);
 
                         if (this.includeUrl.booleanValue()) {
-                        	message += " " + createTinyUrl(absoluteBuildURL);
+                        	message += " " + createTinyUrl(report, absoluteBuildURL);
                         }
                         
-                        sendMessage(getDescriptor().getApiKey(), getDescriptor().getMsisdn(), getDescriptor().getPassword(), recipient, message);
+                        sendMessage(report, recipient, message);
                     }
                 }
 
-                if (sendToCulprits) {
+                if (Boolean.TRUE.equals(sendToCulprits)) {
                 	
                 	List<NameValuePair> phoneToCulprits = new ArrayList<NameValuePair>();
                     for (String culprit : culpritList) {
@@ -330,6 +556,7 @@ public class MysmsNotifier extends Notifier {
                     for (final NameValuePair phoneToCulprit : phoneToCulprits) {
                         final String absoluteBuildURL = getDescriptor().getUrl() + build.getUrl();
                         String recipient = phoneToCulprit.getValue();
+                        start = System.currentTimeMillis();
                         final Map<String, String> localSubAttrs = new HashMap<String, String>(substitutionAttributes);
                         localSubAttrs.put("%CULPRIT-NAME%", phoneToCulprit.getName());
                         String message = null;
@@ -338,12 +565,13 @@ public class MysmsNotifier extends Notifier {
                         } else {
                         	message = substituteAttributes(this.culpritMessage, localSubAttrs);
                         }
+                        report.addStage("render", start);
 
                         if (this.includeUrl.booleanValue()) {
-                        	message += " " + createTinyUrl(absoluteBuildURL);
+                        	message += " " + createTinyUrl(report, absoluteBuildURL);
                         }
                         
-                        sendMessage(getDescriptor().getApiKey(), getDescriptor().getMsisdn(), getDescriptor().getPassword(), recipient, message);
+                        sendMessage(report, recipient, message);
                     }
                 }
 
@@ -352,12 +580,45 @@ public class MysmsNotifier extends Notifier {
 
             }
         } catch (final Exception t) {
+            report.setError(t.toString());
             listener.getLogger().println("Exception " + t);
+        } finally {
+            report.finish();
         }
 
         return true;
     }
 
+    /**
+     * Checks if the message or the culprit message references a placeholder,
+     * so expensive placeholders are only computed when needed.
+     * 
+     * @param placeholder
+     *            the placeholder, e.g. %ARTIFACTS%
+     * @return true if the placeholder is used
+     */
+    private boolean isReferenced(final String placeholder) {
+        return (this.message != null && this.message.contains(placeholder))
+                || (this.culpritMessage != null && this.culpritMessage.contains(placeholder));
+    }
+
+    /**
+     * Returns the {@link NotificationReport} of the build, attaching a new
+     * one if the build has none yet.
+     * 
+     * @param build
+     *            the Build object
+     * @return the notification report of the build
+     */
+    private static synchronized NotificationReport getNotificationReport(final AbstractBuild<?, ?> build) {
+        NotificationReport report = build.getAction(NotificationReport.class);
+        if (report == null) {
+            report = new NotificationReport();
+            build.addAction(report);
+        }
+        return report;
+    }
+
     protected static String culpritStringFromList(List<String> culpritList) {
         String result = "";
         if (culpritList.size() == 1) {
@@ -423,18 +684,44 @@ public class MysmsNotifier extends Notifier {
         }
     }
 
+    /**
+     * Sends a text message and records its outcome in the report.
+     * 
+     * @param report
+     * @param recipient
+     * @param message
+     * @throws IOException 
+     * @throws HttpException 
+     */
+    private void sendMessage(final NotificationReport.Notification report, final String recipient,
+            final String message) throws HttpException, IOException {
+        final long start = System.currentTimeMillis();
+        int errorCode = NotificationReport.NO_RESPONSE;
+        try {
+            errorCode = sendMessage(getDescriptor().getApiKey(), getDescriptor().getMsisdn(),
+                    getDescriptor().getPassword(), recipient, message);
+        } finally {
+            report.addOutcome(recipient, errorCode, start);
+            report.addStage("sendMessage", start);
+        }
+        if (errorCode != 0) {
+            throw new RuntimeException("Send message request failed with error: " + errorCode);
+        }
+    }
+
     /**
      * Sends a text message.
      * 
+     * @param apiKey
+     * @param msisdn
+     * @param password
+     * @param recipient
      * @param message
-     * @param smsFactory
-     * @param from
-     * @param to
+     * @return the error code returned by mysms, 0 on success
      * @throws IOException 
      * @throws HttpException 
-     * @throws TwilioRestException
      */
-    private void sendMessage(final String apiKey, final String msisdn, final String password, 
+    protected int sendMessage(final String apiKey, final String msisdn, final String password, 
     		 final String recipient, final String message) throws HttpException, IOException {
         
         final HttpClient client = new HttpClient();
@@ -450,10 +737,7 @@ public class MysmsNotifier extends Notifier {
         final int status = client.executeMethod(getMethod);
         if (status == HttpStatus.SC_OK) {
         	JSONObject response = (JSONObject) JSONSerializer.toJSON(getMethod.getResponseBodyAsString(1024));
-        	int errorCode = response.getInt("errorCode");
-            if (errorCode != 0) {
-            	throw new RuntimeException("Send message request failed with error: " + errorCode);
-            }
+        	return response.getInt("errorCode");
         } else {
             throw new IOException("Non-OK response code back from mysms: " + status);
         }
@@ -478,6 +762,167 @@ public class MysmsNotifier extends Notifier {
         return culpritList;
     }
 
+    /**
+     * Collects the culprits of a build and, if <code>changes</code> is
+     * given, summarizes the changes into it within the same single pass over
+     * the change set. Without <code>changes</code> the culprits are simply
+     * taken from {@link AbstractBuild#getCulprits()}.
+     * 
+     * @param build
+     *            the Build object
+     * @param logger
+     * @param changes
+     *            receives the %CHANGES% summary, may be null
+     * @param collectCulprits
+     *            whether the culprits are needed when summarizing changes
+     * @return the ids of the culprits
+     * @throws IOException
+     */
+    private List<String> getCulpritList(final AbstractBuild<?, ?> build, PrintStream logger,
+            final StringBuilder changes, final boolean collectCulprits) throws IOException {
+        if (changes == null) {
+            return getCulpritList(build, logger);
+        }
+        final List<String> authors = collectCulprits ? new ArrayList<String>() : null;
+        final ChangeLogSet<? extends Entry> changeSet = build.getChangeSet();
+        if (changeSet != null) {
+            logger.println(" Changeset " + changeSet.toString());
+            summarizeChanges(changeSet.iterator(), getMaxChanges(), getMaxChangeLength(), changes, authors);
+        }
+        if (!collectCulprits) {
+            return new ArrayList<String>();
+        }
+        final Set<String> culprits = new LinkedHashSet<String>(authors);
+        addCulpritsBeyondChangeSet(build, culprits);
+        logger.println(" Culprits size" + culprits.size());
+        return new ArrayList<String>(culprits);
+    }
+
+    /**
+     * Adds the culprits which {@link AbstractBuild#getCulprits()} takes from
+     * outside the build's own change set: those of a failing previous build
+     * and, if <code>hudson.upstreamCulprits</code> is set, the authors of the
+     * upstream changes since the last successful build.
+     * 
+     * @param build
+     *            the Build object
+     * @param culprits
+     *            receives the ids of the culprits
+     */
+    @SuppressWarnings("rawtypes")
+    private static void addCulpritsBeyondChangeSet(final AbstractBuild<?, ?> build, final Set<String> culprits) {
+        final AbstractBuild<?, ?> previousBuild = build.getPreviousCompletedBuild();
+        if (previousBuild != null && build.isBuilding()) {
+            final Result previousResult = previousBuild.getResult();
+            if (previousResult != null && previousResult.isWorseThan(Result.SUCCESS)) {
+                for (final User user : previousBuild.getCulprits()) {
+                    culprits.add(user.getId());
+                }
+            }
+        }
+        if (Boolean.getBoolean("hudson.upstreamCulprits") && build.getPreviousNotFailedBuild() != null) {
+            final Map<AbstractProject, AbstractBuild.DependencyChange> dependencyChanges =
+                    build.getDependencyChanges(build.getPreviousSuccessfulBuild());
+            for (final AbstractBuild.DependencyChange dependencyChange : dependencyChanges.values()) {
+                for (final AbstractBuild<?, ?> upstreamBuild : dependencyChange.getBuilds()) {
+                    for (final Entry entry : upstreamBuild.getChangeSet()) {
+                        culprits.add(entry.getAuthor().getId());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks a change set once, appending at most <code>maxChanges</code>
+     * messages of at most <code>maxChangeLength</code> characters to
+     * <code>changes</code> and collecting the author ids into
+     * <code>authors</code>. Stops as soon as the caps are reached unless the
+     * authors are still needed.
+     * 
+     * @param entries
+     *            the change set entries
+     * @param maxChanges
+     *            the maximum number of messages
+     * @param maxChangeLength
+     *            the maximum number of characters per message
+     * @param changes
+     *            receives the messages, may be null
+     * @param authors
+     *            receives the author ids, may be null
+     */
+    protected static void summarizeChanges(final Iterator<? extends Entry> entries, final int maxChanges,
+            final int maxChangeLength, final StringBuilder changes, final List<String> authors) {
+        int count = 0;
+        boolean more = false;
+        while (entries.hasNext()) {
+            final boolean summarize = changes != null && count < maxChanges;
+            if (!summarize) {
+                more = changes != null;
+                if (authors == null) {
+                    break;
+                }
+            }
+            final Entry entry = entries.next();
+            if (authors != null) {
+                authors.add(entry.getAuthor().getId());
+            }
+            if (summarize) {
+                changes
+                    .append("\n")
+                    .append(truncate(entry.getMsg(), maxChangeLength));
+                count++;
+            }
+        }
+        if (more) {
+            changes.append("\n...");
+        }
+    }
+
+    /**
+     * Returns the first non-blank line of a message without leading
+     * whitespace, cut to at most <code>maxLength</code> characters.
+     * 
+     * @param message
+     * @param maxLength
+     * @return the truncated message
+     */
+    protected static String truncate(final String message, final int maxLength) {
+        if (message == null || maxLength <= 0) {
+            return "";
+        }
+        int start = 0;
+        while (start < message.length() && Character.isWhitespace(message.charAt(start))) {
+            start++;
+        }
+        int end = Math.min(message.length(), start + maxLength);
+        for (int i = start; i < end; i++) {
+            if (message.charAt(i) == '\n') {
+                end = i;
+            }
+        }
+        return message.substring(start, end).trim();
+    }
+
+    /**
+     * Creates a tiny url out of a longer url and records the time spent in
+     * the report.
+     * 
+     * @param report
+     * @param url
+     * @return
+     * @throws IOException
+     */
+    private String createTinyUrl(final NotificationReport.Notification report, final String url)
+            throws IOException {
+        final long start = System.currentTimeMillis();
+        try {
+            return createTinyUrl(url);
+        } finally {
+            report.addStage("createTinyUrl", start);
+        }
+    }
+
     /**
      * Creates a tiny url out of a longer url.
      * 
@@ -485,7 +930,7 @@ public class MysmsNotifier extends Notifier {
      * @return
      * @throws IOException
      */
-    private static String createTinyUrl(final String url) throws IOException {
+    protected String createTinyUrl(final String url) throws IOException {
         final HttpClient client = new HttpClient();
         final GetMethod getMethod = new GetMethod("http://is.gd/create.php?format=simple&url=" + url.replace(" ", "%20"));
 
@@ -555,6 +1000,37 @@ public class MysmsNotifier extends Notifier {
             return this.hudsonUrl;
         }
 
+        /**
+         * Validates the maximum number of changes.
+         * 
+         * @param value the maximum number of changes to validate
+         * @return {@link FormValidation.ok} if valid, {@link FormValidation.error} if not valid
+         */
+        public FormValidation doCheckMaxChanges(@QueryParameter String value) {
+            return validatePositiveNumber(value, "The maximum number of changes must be a number greater than 0.");
+        }
+
+        /**
+         * Validates the maximum length of a change.
+         * 
+         * @param value the maximum length of a change to validate
+         * @return {@link FormValidation.ok} if valid, {@link FormValidation.error} if not valid
+         */
+        public FormValidation doCheckMaxChangeLength(@QueryParameter String value) {
+            return validatePositiveNumber(value, "The maximum length of a change must be a number greater than 0.");
+        }
+
+        private static FormValidation validatePositiveNumber(final String value, final String error) {
+            if (value == null || value.trim().isEmpty()) {
+                return FormValidation.ok();
+            }
+            final Integer number = convertToInteger(value);
+            if (number == null || number.intValue() <= 0)
+                return FormValidation.error(error);
+            else
+                return FormValidation.ok();
+        }
+
         @SuppressWarnings("rawtypes")
 		@Override
         public boolean isApplicable(final Class<? extends AbstractProject> jobType) {
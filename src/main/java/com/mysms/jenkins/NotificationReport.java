@@ -0,0 +1,234 @@
+package com.mysms.jenkins;
+
+import hudson.model.Action;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Build {@link Action} which records how long each stage of a
+ * {@link MysmsNotifier} run took and how every recipient was served.
+ *
+ * The report is persisted with the build record and exposed through the
+ * remote API, so slow or missing notifications can be tracked down without
+ * enabling debug logging.
+ *
+ */
+@ExportedBean(defaultVisibility = 999)
+public class NotificationReport implements Action {
+
+    /**
+     * Error code recorded when no answer was received from mysms.
+     */
+    public static final int NO_RESPONSE = -1;
+
+    private final List<Notification> notifications = new ArrayList<Notification>();
+
+    /**
+     * Masks a phone number, so only its last digits are stored with the
+     * build and exposed through the remote API.
+     *
+     * @param recipient
+     *            the phone number
+     * @return the masked phone number
+     */
+    protected static String maskRecipient(final String recipient) {
+        if (recipient == null) {
+            return null;
+        }
+        final String number = recipient.trim();
+        final int visible = Math.min(3, number.length() / 2);
+        final StringBuilder masked = new StringBuilder();
+        for (int i = 0; i < number.length() - visible; i++) {
+            masked.append('*');
+        }
+        return masked.append(number.substring(number.length() - visible)).toString();
+    }
+
+    /**
+     * Starts recording a new notifier run.
+     *
+     * @return the record of the new run
+     */
+    public synchronized Notification startNotification() {
+        Notification notification = new Notification();
+        notifications.add(notification);
+        return notification;
+    }
+
+    /**
+     * Getter for the recorded notifier runs.
+     *
+     * @return the notifier runs of this build
+     */
+    @Exported
+    public synchronized List<Notification> getNotifications() {
+        return Collections.unmodifiableList(new ArrayList<Notification>(notifications));
+    }
+
+    public String getIconFileName() {
+        return "clipboard.png";
+    }
+
+    public String getDisplayName() {
+        return "mysms Notification Report";
+    }
+
+    public String getUrlName() {
+        return "mysmsNotification";
+    }
+
+    /**
+     * A single run of a {@link MysmsNotifier}.
+     */
+    @ExportedBean(defaultVisibility = 999)
+    public static final class Notification {
+
+        private final long timestamp = System.currentTimeMillis();
+        private final List<Stage> stages = new ArrayList<Stage>();
+        private final List<Outcome> outcomes = new ArrayList<Outcome>();
+        private volatile long duration;
+        private volatile boolean notified;
+        private volatile String error;
+
+        /**
+         * Records a stage which was started at the given time and is
+         * finished now.
+         *
+         * @param name
+         *            the name of the stage
+         * @param start
+         *            the start time in milliseconds
+         */
+        public synchronized void addStage(final String name, final long start) {
+            stages.add(new Stage(name, System.currentTimeMillis() - start));
+        }
+
+        /**
+         * Records the outcome of sending a message to a recipient. Only the
+         * masked phone number of the recipient is kept.
+         *
+         * @param recipient
+         *            the phone number of the recipient
+         * @param errorCode
+         *            the mysms error code or {@link NotificationReport#NO_RESPONSE}
+         * @param start
+         *            the start time of the request in milliseconds
+         */
+        public synchronized void addOutcome(final String recipient, final int errorCode, final long start) {
+            outcomes.add(new Outcome(maskRecipient(recipient), errorCode, System.currentTimeMillis() - start));
+        }
+
+        @Exported
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Marks the end of the notifier run.
+         */
+        public void finish() {
+            this.duration = System.currentTimeMillis() - timestamp;
+        }
+
+        @Exported
+        public long getDuration() {
+            return duration;
+        }
+
+        @Exported
+        public synchronized List<Stage> getStages() {
+            return Collections.unmodifiableList(new ArrayList<Stage>(stages));
+        }
+
+        @Exported
+        public synchronized List<Outcome> getOutcomes() {
+            return Collections.unmodifiableList(new ArrayList<Outcome>(outcomes));
+        }
+
+        @Exported
+        public boolean isNotified() {
+            return notified;
+        }
+
+        public void setNotified(final boolean notified) {
+            this.notified = notified;
+        }
+
+        @Exported
+        public String getError() {
+            return error;
+        }
+
+        public void setError(final String error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * Time spent in one stage of a notifier run. Stages may nest, e.g. the
+     * tiny urls created for %ARTIFACTS% are part of the render stage as well.
+     */
+    @ExportedBean(defaultVisibility = 999)
+    public static final class Stage {
+
+        private final String name;
+        private final long duration;
+
+        public Stage(final String name, final long duration) {
+            this.name = name;
+            this.duration = duration;
+        }
+
+        @Exported
+        public String getName() {
+            return name;
+        }
+
+        @Exported
+        public long getDuration() {
+            return duration;
+        }
+    }
+
+    /**
+     * Outcome of sending a message to one recipient.
+     */
+    @ExportedBean(defaultVisibility = 999)
+    public static final class Outcome {
+
+        private final String recipient;
+        private final int errorCode;
+        private final long duration;
+
+        public Outcome(final String recipient, final int errorCode, final long duration) {
+            this.recipient = recipient;
+            this.errorCode = errorCode;
+            this.duration = duration;
+        }
+
+        @Exported
+        public String getRecipient() {
+            return recipient;
+        }
+
+        @Exported
+        public int getErrorCode() {
+            return errorCode;
+        }
+
+        @Exported
+        public long getDuration() {
+            return duration;
+        }
+
+        @Exported
+        public boolean isSuccess() {
+            return errorCode == 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.mysms.jenkins;
+
+import static org.junit.Assert.*;
+
+import hudson.model.User;
+import hudson.scm.ChangeLogSet.Entry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class MysmsNotifierChangesTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testSummarizeChangesCollectsAllAuthors() {
+        List<Entry> entries = Arrays.asList(entry("First change", "alice"), entry("\n  Second change", "bob"),
+                entry("Third change", "carol"));
+
+        StringBuilder changes = new StringBuilder();
+        List<String> authors = new ArrayList<String>();
+        MysmsNotifier.summarizeChanges(entries.iterator(), 2, 80, changes, authors);
+        assertEquals("\nFirst change\nSecond change\n...", changes.toString());
+        assertEquals(Arrays.asList("alice", "bob", "carol"), authors);
+
+        authors = new ArrayList<String>();
+        MysmsNotifier.summarizeChanges(entries.iterator(), 1, 80, null, authors);
+        assertEquals(Arrays.asList("alice", "bob", "carol"), authors);
+    }
+
+    private static Entry entry(final String msg, final String author) {
+        return new Entry() {
+            @Override
+            public String getMsg() {
+                return msg;
+            }
+
+            @Override
+            public User getAuthor() {
+                return User.get(author);
+            }
+
+            @Override
+            public Collection<String> getAffectedPaths() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,214 @@
+package com.mysms.jenkins;
+
+import static org.junit.Assert.*;
+
+import hudson.Launcher;
+import hudson.model.BuildListener;
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.junit.JUnitResultArchiver;
+import hudson.tasks.test.AbstractTestResultAction;
+import hudson.tasks.test.AggregatedTestResultAction;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jenkins.model.Jenkins;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+
+public class MysmsNotifierFailedTestsTest {
+
+    private static final String[] OLD_FAILURES = { "testF1", "testF2", "testF3" };
+    private static final String[] NEW_FAILURES = { "testN1", "testN2", "testN3", "testN4" };
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testFailedTestsNewestFirst() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.getPublishersList().add(new JUnitResultArchiver("report.xml"));
+        buildWithFailures(project, "com.example.SuiteTest", OLD_FAILURES);
+
+        RecordingNotifier notifier = new RecordingNotifier("%FAILED_TESTS_COUNT%%FAILED_TESTS%");
+        project.getPublishersList().add(notifier);
+        buildWithFailures(project, "com.example.SuiteTest", concat(OLD_FAILURES, NEW_FAILURES));
+
+        assertEquals(Arrays.asList("7"
+                + "\ncom.example.SuiteTest.testN1"
+                + "\ncom.example.SuiteTest.testN2"
+                + "\ncom.example.SuiteTest.testN3"
+                + "\ncom.example.SuiteTest.testN4"
+                + "\ncom.example.SuiteTest.testF1"
+                + "\n... and 2 more"), notifier.messages);
+        assertEquals(1, notifier.failedTestsCalls);
+    }
+
+    @Test
+    public void testFailedTestsOfAggregatedResult() throws Exception {
+        FreeStyleProject oldChild = j.createFreeStyleProject("old-child");
+        oldChild.getPublishersList().add(new JUnitResultArchiver("report.xml"));
+        buildWithFailures(oldChild, "com.example.OldTest", OLD_FAILURES);
+        final FreeStyleBuild oldChildBuild = buildWithFailures(oldChild, "com.example.OldTest", OLD_FAILURES);
+
+        FreeStyleProject newChild = j.createFreeStyleProject("new-child");
+        newChild.getPublishersList().add(new JUnitResultArchiver("report.xml"));
+        final FreeStyleBuild newChildBuild = buildWithFailures(newChild, "com.example.NewTest", NEW_FAILURES);
+
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
+                build.addAction(new StreamOnlyTestResultAction(build, oldChildBuild, newChildBuild));
+                return true;
+            }
+        });
+        RecordingNotifier notifier = new RecordingNotifier("%FAILED_TESTS_COUNT%%FAILED_TESTS%");
+        project.getPublishersList().add(notifier);
+        j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+
+        assertEquals(Arrays.asList("7"
+                + "\ncom.example.NewTest.testN1"
+                + "\ncom.example.NewTest.testN2"
+                + "\ncom.example.NewTest.testN3"
+                + "\ncom.example.NewTest.testN4"
+                + "\ncom.example.OldTest.testF1"
+                + "\n... and 2 more"), notifier.messages);
+    }
+
+    @Test
+    public void testFailedTestsCountOnly() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.getPublishersList().add(new JUnitResultArchiver("report.xml"));
+        RecordingNotifier notifier = new RecordingNotifier("%FAILED_TESTS_COUNT% failed");
+        project.getPublishersList().add(notifier);
+        buildWithFailures(project, "com.example.SuiteTest", NEW_FAILURES);
+
+        assertEquals(Arrays.asList("4 failed"), notifier.messages);
+        assertEquals(0, notifier.failedTestsCalls);
+    }
+
+    @Test
+    public void testFailedTestsNotReferenced() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.getPublishersList().add(new JUnitResultArchiver("report.xml"));
+        RecordingNotifier notifier = new RecordingNotifier("%STATUS%");
+        project.getPublishersList().add(notifier);
+        buildWithFailures(project, "com.example.SuiteTest", NEW_FAILURES);
+
+        assertEquals(Arrays.asList("UNSTABLE"), notifier.messages);
+        assertEquals(0, notifier.failedTestsCalls);
+    }
+
+    @Test
+    public void testFailedTestsWithoutTestResult() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject();
+        RecordingNotifier notifier = new RecordingNotifier("%FAILED_TESTS_COUNT%:%FAILED_TESTS%");
+        project.getPublishersList().add(notifier);
+        j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+
+        assertEquals(Arrays.asList("0:"), notifier.messages);
+        assertEquals(0, notifier.failedTestsCalls);
+    }
+
+    private FreeStyleBuild buildWithFailures(final FreeStyleProject project, final String className,
+            final String... failures) throws Exception {
+        project.getBuildersList().replaceBy(Arrays.asList(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+                    throws InterruptedException, IOException {
+                StringBuilder report = new StringBuilder()
+                    .append("<testsuite name=\"").append(className).append("\" tests=\"").append(failures.length)
+                    .append("\" failures=\"").append(failures.length).append("\">");
+                for (String failure : failures) {
+                    report
+                        .append("<testcase classname=\"").append(className).append("\" name=\"").append(failure)
+                        .append("\" time=\"0\"><failure message=\"boom\">boom</failure></testcase>");
+                }
+                report.append("</testsuite>");
+                build.getWorkspace().child("report.xml").write(report.toString(), "UTF-8");
+                return true;
+            }
+        }));
+        return j.assertBuildStatus(Result.UNSTABLE, project.scheduleBuild2(0).get());
+    }
+
+    private static String[] concat(final String[] first, final String[] second) {
+        List<String> result = new ArrayList<String>(Arrays.asList(first));
+        result.addAll(Arrays.asList(second));
+        return result.toArray(new String[result.size()]);
+    }
+
+    /**
+     * Notifier which records the messages instead of sending them.
+     */
+    public static class RecordingNotifier extends MysmsNotifier {
+
+        transient final List<String> messages = new ArrayList<String>();
+        transient int failedTestsCalls;
+
+        public RecordingNotifier(final String message) {
+            super(message, "4155555555", "false", "false", "", "false", "", null, null);
+        }
+
+        @Override
+        protected int sendMessage(final String apiKey, final String msisdn, final String password,
+                final String recipient, final String message) {
+            messages.add(message);
+            return 0;
+        }
+
+        @Override
+        protected String failedTestsString(final AbstractTestResultAction<?> testResult) {
+            failedTestsCalls++;
+            return super.failedTestsString(testResult);
+        }
+
+        @Override
+        public DescriptorImpl getDescriptor() {
+            return Jenkins.getInstance().getDescriptorByType(MysmsNotifier.DescriptorImpl.class);
+        }
+    }
+
+    /**
+     * Aggregated test result whose failed tests may only be read child by
+     * child, like the results of matrix and maven module set builds.
+     */
+    public static class StreamOnlyTestResultAction extends AggregatedTestResultAction {
+
+        public StreamOnlyTestResultAction(final AbstractBuild<?, ?> owner, final AbstractBuild<?, ?>... children) {
+            super(owner);
+            List<AbstractTestResultAction<?>> childResults = new ArrayList<AbstractTestResultAction<?>>();
+            for (AbstractBuild<?, ?> child : children) {
+                childResults.add(child.getAction(AbstractTestResultAction.class));
+            }
+            update(childResults);
+        }
+
+        @Override
+        protected String getChildName(final AbstractTestResultAction tr) {
+            return tr.owner.getProject().getFullName();
+        }
+
+        @Override
+        public AbstractBuild<?, ?> resolveChild(final Child child) {
+            return Jenkins.getInstance().getItemByFullName(child.name, AbstractProject.class)
+                    .getBuildByNumber(child.build);
+        }
+
+        @Override
+        public List<CaseResult> getFailedTests() {
+            throw new AssertionError("Failed tests of all children must not be copied");
+        }
+    }
+}
@@ -2,8 +2,15 @@ package com.mysms.jenkins;
 
 import static org.junit.Assert.*;
 
+import hudson.model.User;
+import hudson.scm.ChangeLogSet.Entry;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -52,4 +59,125 @@ public class MysmsNotifierTest {
         result = MysmsNotifier.culpritStringFromList(phoneToCulprit);
         assertEquals(result,"William James and Luke");
     }
+    
+    @Test
+    public void testSubstitutionWithSpecialCharacters() {
+        Map<String,String> subMap = new HashMap<String,String>();
+        subMap.put("%FAILED_TESTS%","com.example.Outer$InnerTest.testIt");
+        String result = MysmsNotifier.substituteAttributes("Failed: %FAILED_TESTS%", subMap);
+        assertEquals("Failed: com.example.Outer$InnerTest.testIt", result);
+    }
+    
+    @Test
+    public void testSelectTop() {
+        Comparator<String> byLength = new Comparator<String>() {
+            public int compare(String o1, String o2) {
+                return o1.length() - o2.length();
+            }
+        };
+        List<String> input = Arrays.asList("ccc", "a", "dddd", "b", "ee", "f");
+        List<String> result = new ArrayList<String>();
+        MysmsNotifier.selectTop(input.iterator(), 3, byLength, result);
+        assertEquals(Arrays.asList("a", "b", "f"), result);
+        
+        result = new ArrayList<String>();
+        MysmsNotifier.selectTop(input.iterator(), 10, byLength, result);
+        assertEquals(Arrays.asList("a", "b", "f", "ee", "ccc", "dddd"), result);
+        
+        result = new ArrayList<String>();
+        MysmsNotifier.selectTop(input.iterator(), 0, byLength, result);
+        assertTrue(result.isEmpty());
+    }
+    
+    @Test
+    public void testFailedTestsString() {
+        List<String> names = Arrays.asList("com.example.FooTest.testA", "com.example.BarTest.testB");
+        assertEquals("\ncom.example.FooTest.testA\ncom.example.BarTest.testB\n... and 3 more",
+                MysmsNotifier.failedTestsString(names, 5));
+        assertEquals("\ncom.example.FooTest.testA\ncom.example.BarTest.testB",
+                MysmsNotifier.failedTestsString(names, 2));
+        assertEquals("", MysmsNotifier.failedTestsString(new ArrayList<String>(), 0));
+    }
+    
+    @Test
+    public void testSelectTopMergesSelections() {
+        Comparator<String> byLength = new Comparator<String>() {
+            public int compare(String o1, String o2) {
+                return o1.length() - o2.length();
+            }
+        };
+        List<String> result = new ArrayList<String>();
+        MysmsNotifier.selectTop(Arrays.asList("ccc", "a", "dddd").iterator(), 3, byLength, result);
+        MysmsNotifier.selectTop(Arrays.asList("ee", "b", "fffff").iterator(), 3, byLength, result);
+        assertEquals(Arrays.asList("a", "b", "ee"), result);
+    }
+    
+    @Test
+    public void testTruncate() {
+        assertEquals("Fix the build", MysmsNotifier.truncate("Fix the build\n\nLong description", 80));
+        assertEquals("Fix", MysmsNotifier.truncate("Fix the build", 3));
+        assertEquals("", MysmsNotifier.truncate(null, 80));
+        assertEquals("Fix the", MysmsNotifier.truncate("\n\n   Fix the build\nDetails", 7));
+        assertEquals("", MysmsNotifier.truncate(" \n\t", 80));
+    }
+    
+    @Test
+    public void testSummarizeChanges() {
+        List<Entry> entries = Arrays.asList(entry("First change"), entry("Second change\nDetails"),
+                entry("Third change"));
+        
+        StringBuilder changes = new StringBuilder();
+        MysmsNotifier.summarizeChanges(entries.iterator(), 5, 80, changes, null);
+        assertEquals("\nFirst change\nSecond change\nThird change", changes.toString());
+        
+        changes = new StringBuilder();
+        MysmsNotifier.summarizeChanges(entries.iterator(), 2, 6, changes, null);
+        assertEquals("\nFirst\nSecond\n...", changes.toString());
+    }
+    
+    @Test
+    public void testSummarizeChangesStopsAtCap() {
+        final int maxChanges = 2;
+        Iterator<Entry> entries = new Iterator<Entry>() {
+            private int count;
+            
+            public boolean hasNext() {
+                return true;
+            }
+            
+            public Entry next() {
+                if (++count > maxChanges + 1) {
+                    fail("Iterated past the cap");
+                }
+                return entry("Change " + count);
+            }
+            
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        
+        StringBuilder changes = new StringBuilder();
+        MysmsNotifier.summarizeChanges(entries, maxChanges, 80, changes, null);
+        assertEquals("\nChange 1\nChange 2\n...", changes.toString());
+    }
+    
+    private static Entry entry(final String msg) {
+        return new Entry() {
+            @Override
+            public String getMsg() {
+                return msg;
+            }
+            
+            @Override
+            public User getAuthor() {
+                throw new UnsupportedOperationException();
+            }
+            
+            @Override
+            public Collection<String> getAffectedPaths() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
 }
@@ -0,0 +1,90 @@
+package com.mysms.jenkins;
+
+import static org.junit.Assert.*;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import jenkins.model.Jenkins;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.mysms.jenkins.NotificationReport.Notification;
+import com.mysms.jenkins.NotificationReport.Outcome;
+import com.mysms.jenkins.NotificationReport.Stage;
+
+public class NotificationReportTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testMaskRecipient() {
+        assertEquals("*******555", NotificationReport.maskRecipient("4155555555"));
+        assertEquals("*2", NotificationReport.maskRecipient("12"));
+        assertNull(NotificationReport.maskRecipient(null));
+    }
+
+    @Test
+    public void testPerformRecordsFailedMessage() throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.getPublishersList().add(new FailingNotifier());
+        FreeStyleBuild build = j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+
+        NotificationReport report = build.getAction(NotificationReport.class);
+        assertNotNull(report);
+        assertEquals(1, report.getNotifications().size());
+
+        Notification notification = report.getNotifications().get(0);
+        assertTrue(notification.isNotified());
+        assertTrue(notification.getError().contains("mysms unreachable"));
+
+        List<String> stageNames = new ArrayList<String>();
+        for (Stage stage : notification.getStages()) {
+            stageNames.add(stage.getName());
+        }
+        assertTrue(stageNames.contains("shouldNotify"));
+        assertTrue(stageNames.contains("render"));
+        assertTrue(stageNames.contains("getCulpritList"));
+        assertTrue(stageNames.contains("createTinyUrl"));
+        assertTrue(stageNames.contains("sendMessage"));
+
+        assertEquals(1, notification.getOutcomes().size());
+        Outcome outcome = notification.getOutcomes().get(0);
+        assertEquals("*******555", outcome.getRecipient());
+        assertEquals(NotificationReport.NO_RESPONSE, outcome.getErrorCode());
+        assertFalse(outcome.isSuccess());
+    }
+
+    /**
+     * Notifier which never reaches mysms or is.gd.
+     */
+    public static class FailingNotifier extends MysmsNotifier {
+
+        public FailingNotifier() {
+            super("%PROJECT% is %STATUS%", "4155555555", "false", "true", "", "false", "", null, null);
+        }
+
+        @Override
+        protected int sendMessage(final String apiKey, final String msisdn, final String password,
+                final String recipient, final String message) throws IOException {
+            throw new IOException("mysms unreachable");
+        }
+
+        @Override
+        protected String createTinyUrl(final String url) {
+            return url;
+        }
+
+        @Override
+        public DescriptorImpl getDescriptor() {
+            return Jenkins.getInstance().getDescriptorByType(MysmsNotifier.DescriptorImpl.class);
+        }
+    }
+}